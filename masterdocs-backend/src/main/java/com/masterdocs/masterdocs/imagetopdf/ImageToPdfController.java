@@ -1,11 +1,13 @@
 package com.masterdocs.masterdocs.imagetopdf;
 
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -21,13 +23,18 @@ public class ImageToPdfController {
     }
 
     @PostMapping("/convert")
-    public ResponseEntity<byte[]> convertToPdf(@RequestParam("files") List<MultipartFile> files) {
+    public ResponseEntity<StreamingResponseBody> convertToPdf(@RequestParam("files") List<MultipartFile> files) {
         try {
             if (files.isEmpty()) {
                 return ResponseEntity.badRequest().build();
             }
 
-            byte[] pdf = imageToPdfService.convertToPdf(files);
+            // Reject bad uploads while an error status can still be sent
+            imageToPdfService.validateImages(files);
+            // A failure after this point is rethrown rather than handled: the response is
+            // already committed, so the container closes the connection without the final
+            // chunk and the client sees a broken transfer instead of a truncated "valid" PDF
+            StreamingResponseBody pdf = out -> imageToPdfService.writePdf(files, out);
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
@@ -38,4 +45,12 @@ public class ImageToPdfController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Every streaming thread is busy and the queue is full; nothing has been written yet
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> handleBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
 }
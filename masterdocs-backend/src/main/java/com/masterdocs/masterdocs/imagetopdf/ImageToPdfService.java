@@ -1,68 +1,162 @@
 package com.masterdocs.masterdocs.imagetopdf;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.w3c.dom.Node;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
 public class ImageToPdfService {
 
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+
     /**
-     * Convert images to PDF
+     * Check that every file is an image this service can embed, reading only the image headers.
+     * Call this before streaming so invalid uploads fail before the response is committed.
      * @param files List of image files
-     * @return PDF as byte array
      */
-    public byte[] convertToPdf(List<MultipartFile> files) throws IOException {
-        try (PDDocument document = new PDDocument();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+    public void validateImages(List<MultipartFile> files) throws IOException {
+        for (MultipartFile file : files) {
+            inspect(file);
+        }
+    }
+
+    /**
+     * Convert images to PDF, writing each page to the output as soon as it is built.
+     * Only one image is held in memory at a time, however many files are uploaded.
+     * @param files List of image files
+     * @param out Destination of the PDF (not closed)
+     */
+    public void writePdf(List<MultipartFile> files, OutputStream out) throws IOException {
+        StreamingPdfWriter writer = new StreamingPdfWriter(out);
+
+        for (MultipartFile file : files) {
+            ImageInfo info = inspect(file);
+
+            // Calculate page size to fit image
+            float imageWidth = info.width();
+            float imageHeight = info.height();
+
+            // Use A4 size as max, scale down if needed
+            float maxWidth = PDRectangle.A4.getWidth();
+            float maxHeight = PDRectangle.A4.getHeight();
+
+            float scale = Math.min(maxWidth / imageWidth, maxHeight / imageHeight);
+            if (scale > 1) scale = 1; // Don't scale up
 
-            for (MultipartFile file : files) {
-                // Read image
-                BufferedImage image = ImageIO.read(file.getInputStream());
+            float scaledWidth = imageWidth * scale;
+            float scaledHeight = imageHeight * scale;
+
+            if (info.isPassThroughJpeg()) {
+                // Embed the JPEG as-is, no need to decode it
+                try (InputStream in = file.getInputStream()) {
+                    writer.addJpegPage(in, file.getSize(), info.width(), info.height(),
+                            info.components(), info.adobe(), scaledWidth, scaledHeight);
+                }
+            } else {
+                BufferedImage image;
+                try (InputStream in = file.getInputStream()) {
+                    image = ImageIO.read(in);
+                }
                 if (image == null) {
                     throw new IOException("Invalid image file: " + file.getOriginalFilename());
                 }
+                writer.addImagePage(image, scaledWidth, scaledHeight);
+            }
+        }
+
+        writer.finish();
+    }
+
+    /**
+     * Read format, dimensions and, for JPEGs, colour components from the image header.
+     * Rejects JPEGs whose colour space is unknown (neither grey, RGB nor CMYK/YCCK), which
+     * could otherwise fail halfway through a response that has already been committed.
+     */
+    private ImageInfo inspect(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream();
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Invalid image file: " + file.getOriginalFilename());
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase();
+                boolean jpeg = format.equals("jpeg") || format.equals("jpg");
+                // Metadata is only needed for the JPEG frame header
+                reader.setInput(iis, true, !jpeg);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                int components = 0;
+                boolean adobe = false;
+                if (jpeg) {
+                    IIOMetadata metadata = reader.getImageMetadata(0);
+                    Node markers = child(metadata.getAsTree(JPEG_METADATA_FORMAT), "markerSequence");
+                    components = countChildren(child(markers, "sof"), "componentSpec");
+                    adobe = child(markers, "app14Adobe") != null;
+                }
 
-                // Create PDImageXObject
-                PDImageXObject pdImage = PDImageXObject.createFromByteArray(
-                        document, file.getBytes(), file.getOriginalFilename());
-
-                // Calculate page size to fit image
-                float imageWidth = pdImage.getWidth();
-                float imageHeight = pdImage.getHeight();
-                
-                // Use A4 size as max, scale down if needed
-                float maxWidth = PDRectangle.A4.getWidth();
-                float maxHeight = PDRectangle.A4.getHeight();
-                
-                float scale = Math.min(maxWidth / imageWidth, maxHeight / imageHeight);
-                if (scale > 1) scale = 1; // Don't scale up
-                
-                float scaledWidth = imageWidth * scale;
-                float scaledHeight = imageHeight * scale;
-
-                // Create page
-                PDPage page = new PDPage(new PDRectangle(scaledWidth, scaledHeight));
-                document.addPage(page);
-
-                // Add image to page
-                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-                    contentStream.drawImage(pdImage, 0, 0, scaledWidth, scaledHeight);
+                ImageInfo info = new ImageInfo(format, width, height, components, adobe);
+                if (info.isJpeg() && !info.isPassThroughJpeg()) {
+                    throw new IOException("Unsupported JPEG colour space: " + file.getOriginalFilename());
                 }
+                return info;
+            } finally {
+                reader.dispose();
             }
+        }
+    }
+
+    private static Node child(Node parent, String name) {
+        if (parent == null) {
+            return null;
+        }
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeName().equals(name)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static int countChildren(Node parent, String name) {
+        int count = 0;
+        if (parent != null) {
+            for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+                if (node.getNodeName().equals(name)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param components Colour components of a JPEG (1 grey, 3 RGB/YCbCr, 4 CMYK/YCCK), 0 otherwise
+     * @param adobe Whether a JPEG has an Adobe APP14 marker
+     */
+    private record ImageInfo(String format, int width, int height, int components, boolean adobe) {
+
+        boolean isJpeg() {
+            return format.equals("jpeg") || format.equals("jpg");
+        }
 
-            document.save(baos);
-            return baos.toByteArray();
+        boolean isPassThroughJpeg() {
+            return isJpeg() && (components == 1 || components == 3 || components == 4);
         }
     }
 }
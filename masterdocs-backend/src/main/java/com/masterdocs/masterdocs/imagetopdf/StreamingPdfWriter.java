@@ -0,0 +1,297 @@
+package com.masterdocs.masterdocs.imagetopdf;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a PDF of one image per page straight to an output stream.
+ * Each page and its image are written as soon as they are added, so only the
+ * current image is ever in memory; the page tree, cross-reference table and
+ * trailer are written by {@link #finish()}.
+ */
+class StreamingPdfWriter {
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+
+    private final CountingOutputStream out;
+    private final List<Integer> pageObjects = new ArrayList<>();
+    private long[] offsets = new long[64];
+    private int nextObject = PAGES + 1;
+    private boolean finished;
+
+    StreamingPdfWriter(OutputStream out) throws IOException {
+        this.out = new CountingOutputStream(out);
+        // Binary comment marks the file as binary for transfer tools
+        write("%PDF-1.4\n");
+        this.out.write(new byte[]{'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'});
+    }
+
+    /**
+     * Add a page showing a JPEG, copying the compressed data through unchanged
+     * @param jpeg The JPEG data, read once
+     * @param length Size of the JPEG data in bytes
+     * @param width Image width in pixels
+     * @param height Image height in pixels
+     * @param components Number of colour components (1 for grey, 3 for RGB, 4 for CMYK)
+     * @param adobe Whether the JPEG has an Adobe APP14 marker; Adobe CMYK JPEGs store
+     *              inverted samples, so the decode range is flipped as PDFBox's JPEGFactory does
+     */
+    void addJpegPage(InputStream jpeg, long length, int width, int height, int components, boolean adobe,
+                     float pageWidth, float pageHeight) throws IOException {
+        String colorSpace = switch (components) {
+            case 1 -> "/DeviceGray";
+            case 3 -> "/DeviceRGB";
+            case 4 -> "/DeviceCMYK";
+            default -> throw new IOException("Unsupported number of JPEG colour components: " + components);
+        };
+        boolean inverted = components == 4 && adobe;
+
+        int image = beginObject();
+        write("<< /Type /XObject /Subtype /Image /Width " + width + " /Height " + height
+                + " /ColorSpace " + colorSpace
+                + (inverted ? " /Decode [1 0 1 0 1 0 1 0]" : "")
+                + " /BitsPerComponent 8 /Filter /DCTDecode /Length " + length + " >>\nstream\n");
+        long copied = jpeg.transferTo(out);
+        if (copied != length) {
+            throw new IOException("Expected " + length + " bytes of JPEG data but read " + copied);
+        }
+        write("\nendstream\n");
+        endObject();
+
+        writePage(image, pageWidth, pageHeight);
+    }
+
+    /**
+     * Add a page showing a decoded image, Flate-compressed; transparency becomes a soft mask
+     */
+    void addImagePage(BufferedImage image, float pageWidth, float pageHeight) throws IOException {
+        ColorModel colorModel = image.getColorModel();
+        boolean gray = colorModel.getColorSpace().getType() == ColorSpace.TYPE_GRAY
+                && !(colorModel instanceof IndexColorModel);
+        boolean alpha = colorModel.hasAlpha();
+
+        int smask = alpha ? writePixels(image, PixelChannel.ALPHA, -1) : -1;
+        int xobject = writePixels(image, gray ? PixelChannel.GRAY : PixelChannel.RGB, smask);
+
+        writePage(xobject, pageWidth, pageHeight);
+    }
+
+    /**
+     * Write the page tree, catalog, cross-reference table and trailer.
+     * The underlying stream is flushed but not closed.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        StringBuilder kids = new StringBuilder();
+        for (Integer page : pageObjects) {
+            kids.append(page).append(" 0 R ");
+        }
+        beginObject(PAGES);
+        write("<< /Type /Pages /Kids [ " + kids + "] /Count " + pageObjects.size() + " >>\n");
+        endObject();
+
+        beginObject(CATALOG);
+        write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\n");
+        endObject();
+
+        long xref = out.getCount();
+        StringBuilder table = new StringBuilder();
+        table.append("xref\n0 ").append(nextObject).append('\n');
+        table.append("0000000000 65535 f \n");
+        for (int i = 1; i < nextObject; i++) {
+            table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offsets[i]));
+        }
+        write(table.toString());
+        write("trailer\n<< /Size " + nextObject + " /Root " + CATALOG + " 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        out.flush();
+    }
+
+    private void writePage(int xobject, float pageWidth, float pageHeight) throws IOException {
+        String w = number(pageWidth);
+        String h = number(pageHeight);
+
+        byte[] content = ("q " + w + " 0 0 " + h + " 0 0 cm /Im0 Do Q\n").getBytes(StandardCharsets.US_ASCII);
+        int contents = beginObject();
+        write("<< /Length " + content.length + " >>\nstream\n");
+        out.write(content);
+        write("endstream\n");
+        endObject();
+
+        int page = beginObject();
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + w + " " + h + "]"
+                + " /Resources << /XObject << /Im0 " + xobject + " 0 R >> >>"
+                + " /Contents " + contents + " 0 R >>\n");
+        endObject();
+        pageObjects.add(page);
+
+        // Hand the finished page to the client instead of holding it in a buffer
+        out.flush();
+    }
+
+    /**
+     * Write one image XObject row by row, followed by its length (only known once compressed)
+     * @param smask Object number of the soft mask, or -1
+     * @return Object number of the image
+     */
+    private int writePixels(BufferedImage image, PixelChannel channel, int smask) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        int xobject = beginObject();
+        int lengthObject = nextObject++;
+        write("<< /Type /XObject /Subtype /Image /Width " + width + " /Height " + height
+                + " /ColorSpace " + (channel == PixelChannel.RGB ? "/DeviceRGB" : "/DeviceGray")
+                + " /BitsPerComponent 8 /Filter /FlateDecode"
+                + (smask > 0 ? " /SMask " + smask + " 0 R" : "")
+                + " /Length " + lengthObject + " 0 R >>\nstream\n");
+
+        long start = out.getCount();
+        int[] pixels = new int[width];
+        byte[] row = new byte[width * channel.bytesPerPixel];
+        Deflater deflater = new Deflater();
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, 8192);
+            for (int y = 0; y < height; y++) {
+                channel.fill(image, y, pixels, row);
+                deflated.write(row);
+            }
+            // finish() rather than close(), the PDF continues after the stream data
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+        long length = out.getCount() - start;
+        write("\nendstream\n");
+        endObject();
+
+        beginObject(lengthObject);
+        write(length + "\n");
+        endObject();
+        return xobject;
+    }
+
+    private int beginObject() throws IOException {
+        int number = nextObject++;
+        beginObject(number);
+        return number;
+    }
+
+    private void beginObject(int number) throws IOException {
+        if (number >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, number + 1));
+        }
+        offsets[number] = out.getCount();
+        write(number + " 0 obj\n");
+    }
+
+    private void endObject() throws IOException {
+        write("endobj\n");
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Format a page dimension without exponent notation, which PDF does not allow
+     */
+    private static String number(float value) {
+        return new BigDecimal(Float.toString(value)).stripTrailingZeros().toPlainString();
+    }
+
+    private enum PixelChannel {
+        RGB(3) {
+            @Override
+            void fill(BufferedImage image, int y, int[] pixels, byte[] row) {
+                image.getRGB(0, y, pixels.length, 1, pixels, 0, pixels.length);
+                for (int x = 0, i = 0; x < pixels.length; x++) {
+                    row[i++] = (byte) (pixels[x] >> 16);
+                    row[i++] = (byte) (pixels[x] >> 8);
+                    row[i++] = (byte) pixels[x];
+                }
+            }
+        },
+        GRAY(1) {
+            /**
+             * Copies the stored samples; getRGB would convert Java's linear gray to sRGB
+             * and wash out the image once it is written as DeviceGray
+             */
+            @Override
+            void fill(BufferedImage image, int y, int[] pixels, byte[] row) {
+                image.getRaster().getSamples(0, y, pixels.length, 1, 0, pixels);
+                int max = (1 << image.getColorModel().getComponentSize(0)) - 1;
+                for (int x = 0; x < pixels.length; x++) {
+                    row[x] = (byte) (max == 255 ? pixels[x] : pixels[x] * 255 / max);
+                }
+            }
+        },
+        ALPHA(1) {
+            @Override
+            void fill(BufferedImage image, int y, int[] pixels, byte[] row) {
+                image.getRGB(0, y, pixels.length, 1, pixels, 0, pixels.length);
+                for (int x = 0; x < pixels.length; x++) {
+                    row[x] = (byte) (pixels[x] >>> 24);
+                }
+            }
+        };
+
+        private final int bytesPerPixel;
+
+        PixelChannel(int bytesPerPixel) {
+            this.bytesPerPixel = bytesPerPixel;
+        }
+
+        /**
+         * Fill one row of output samples for line {@code y}
+         * @param pixels Scratch buffer of one int per pixel
+         */
+        abstract void fill(BufferedImage image, int y, int[] pixels, byte[] row);
+    }
+
+    /**
+     * Tracks the byte offset needed for the cross-reference table
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
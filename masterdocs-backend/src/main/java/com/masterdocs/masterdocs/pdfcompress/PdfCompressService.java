@@ -1,5 +1,6 @@
 package com.masterdocs.masterdocs.pdfcompress;
 
+import com.masterdocs.masterdocs.resultcache.ResultCache;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
@@ -24,6 +25,12 @@ import java.util.Iterator;
 @Service
 public class PdfCompressService {
 
+    private final ResultCache resultCache;
+
+    public PdfCompressService(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
     /**
      * Compress PDF by re-rendering pages with lower quality images
      * @param file The PDF file to compress
@@ -34,6 +41,12 @@ public class PdfCompressService {
         if (quality < 0.1f) quality = 0.1f;
         if (quality > 1.0f) quality = 1.0f;
 
+        float clampedQuality = quality;
+        return resultCache.getOrCompute("compress", file, "quality=" + clampedQuality,
+                () -> doCompressPdf(file, clampedQuality));
+    }
+
+    private byte[] doCompressPdf(MultipartFile file, float quality) throws IOException {
         try (PDDocument originalDoc = PDDocument.load(file.getInputStream());
              PDDocument compressedDoc = new PDDocument();
              ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
@@ -1,5 +1,6 @@
 package com.masterdocs.masterdocs.pdfsplit;
 
+import com.masterdocs.masterdocs.resultcache.ResultCache;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -7,12 +8,19 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 @Service
 public class PdfSplitService {
 
+    private final ResultCache resultCache;
+
+    public PdfSplitService(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
     /**
      * Split PDF by page ranges
      * @param file The PDF file to split
@@ -20,6 +28,14 @@ public class PdfSplitService {
      * @return ZIP file containing split PDFs
      */
     public byte[] splitByRanges(MultipartFile file, List<String> ranges) throws IOException {
+        String normalisedRanges = ranges.stream()
+                .map(range -> range.replace(" ", ""))
+                .collect(Collectors.joining(","));
+        return resultCache.getOrCompute("split-by-ranges", file, "ranges=" + normalisedRanges,
+                () -> doSplitByRanges(file, ranges));
+    }
+
+    private byte[] doSplitByRanges(MultipartFile file, List<String> ranges) throws IOException {
         try (PDDocument document = PDDocument.load(file.getInputStream());
              ByteArrayOutputStream baos = new ByteArrayOutputStream();
              ZipOutputStream zos = new ZipOutputStream(baos)) {
@@ -60,6 +76,10 @@ public class PdfSplitService {
      * @return ZIP file containing individual page PDFs
      */
     public byte[] splitEveryPage(MultipartFile file) throws IOException {
+        return resultCache.getOrCompute("split-every-page", file, "", () -> doSplitEveryPage(file));
+    }
+
+    private byte[] doSplitEveryPage(MultipartFile file) throws IOException {
         try (PDDocument document = PDDocument.load(file.getInputStream());
              ByteArrayOutputStream baos = new ByteArrayOutputStream();
              ZipOutputStream zos = new ZipOutputStream(baos)) {
@@ -92,6 +112,14 @@ public class PdfSplitService {
      * @return Single PDF containing extracted pages
      */
     public byte[] extractPages(MultipartFile file, List<Integer> pages) throws IOException {
+        String normalisedPages = pages.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        return resultCache.getOrCompute("extract-pages", file, "pages=" + normalisedPages,
+                () -> doExtractPages(file, pages));
+    }
+
+    private byte[] doExtractPages(MultipartFile file, List<Integer> pages) throws IOException {
         try (PDDocument document = PDDocument.load(file.getInputStream());
              PDDocument extractedDoc = new PDDocument();
              ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
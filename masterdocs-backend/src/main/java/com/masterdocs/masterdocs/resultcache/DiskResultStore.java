@@ -0,0 +1,167 @@
+package com.masterdocs.masterdocs.resultcache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded directory of cached results, one file per key, evicting the least recently used.
+ * Entries already on disk are picked up at startup, oldest modification time first.
+ * Only files named after a key are touched, so a shared directory keeps its other files.
+ */
+class DiskResultStore {
+
+    private static final String SUFFIX = ".bin";
+
+    // Keys are hex SHA-256 digests; temporary files get a random number appended to the key
+    private static final Pattern ENTRY = Pattern.compile("[0-9a-f]{64}\\.bin");
+    private static final Pattern LEFTOVER = Pattern.compile("[0-9a-f]{64}\\d*\\.tmp");
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // Access-ordered: iteration starts at the least recently used key
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long nextGeneration;
+
+    DiskResultStore(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(directory);
+        List<Path> existing = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(existing::add);
+        }
+
+        existing.sort(Comparator.comparing(DiskResultStore::lastModified));
+        for (Path file : existing) {
+            String name = file.getFileName().toString();
+            if (Files.isDirectory(file)) {
+                continue;
+            }
+            if (ENTRY.matcher(name).matches()) {
+                long size = Files.size(file);
+                entries.put(name.substring(0, name.length() - SUFFIX.length()), new Entry(size, nextGeneration++));
+                totalBytes += size;
+            } else if (LEFTOVER.matcher(name).matches()) {
+                // Leftover of a write interrupted by a shutdown
+                Files.deleteIfExists(file);
+            }
+        }
+        synchronized (this) {
+            evict();
+        }
+    }
+
+    /**
+     * @return The stored result, or null if it is not cached
+     */
+    byte[] get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+        }
+
+        Path file = fileFor(key);
+        try {
+            byte[] result = Files.readAllBytes(file);
+            // Keeps recency across restarts
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return result;
+        } catch (IOException e) {
+            // Evicted while reading, or removed from outside: treat as a miss. The key may have
+            // been stored again meanwhile, so only forget the entry this call looked up
+            remove(key, entry);
+            return null;
+        }
+    }
+
+    /**
+     * Store a result, evicting least recently used entries to stay within the size limit.
+     * Results larger than the whole store are not kept.
+     */
+    void put(String key, byte[] result) throws IOException {
+        if (result.length > maxBytes) {
+            return;
+        }
+
+        // Write under a temporary name so readers never see a partial file
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            Files.write(temp, result);
+            Files.move(temp, fileFor(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(result.length, nextGeneration++));
+            totalBytes += result.length - (previous == null ? 0 : previous.size());
+            evict();
+        }
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            totalBytes -= entry.size();
+        }
+    }
+
+    /**
+     * Must be called while holding the lock
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> entry = eldest.next();
+            try {
+                Files.deleteIfExists(fileFor(entry.getKey()));
+            } catch (IOException e) {
+                // Stop tracking it anyway; the file is overwritten if the key is stored again
+            }
+            totalBytes -= entry.getValue().size();
+            eldest.remove();
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * One stored result; the generation tells apart successive stores of the same key
+     */
+    private record Entry(long size, long generation) {
+    }
+}
@@ -0,0 +1,212 @@
+package com.masterdocs.masterdocs.resultcache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches operation results keyed by (operation, input content hash, normalised parameters).
+ * Results live in a size-bounded {@link DiskResultStore} with LRU eviction, and concurrent
+ * identical requests share one computation instead of each running it.
+ */
+@Component
+public class ResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultCache.class);
+
+    private final boolean enabled;
+    // Null when the cache is disabled
+    private final DiskResultStore store;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResultCache(
+            @Value("${masterdocs.result-cache.enabled:true}") boolean enabled,
+            @Value("${masterdocs.result-cache.directory:${java.io.tmpdir}/masterdocs-result-cache}") String directory,
+            @Value("${masterdocs.result-cache.max-size:1GB}") DataSize maxSize,
+            MeterRegistry meterRegistry) throws IOException {
+        this.enabled = enabled;
+        this.store = enabled ? new DiskResultStore(Path.of(directory), maxSize.toBytes()) : null;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("masterdocs.result.cache.hit.ratio", this, ResultCache::getHitRatio)
+                .description("Share of cacheable requests served without running the operation")
+                .register(meterRegistry);
+        if (enabled) {
+            Gauge.builder("masterdocs.result.cache.size", store, DiskResultStore::getTotalBytes)
+                    .description("Bytes of results currently stored on disk")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("masterdocs.result.cache.entries", store, DiskResultStore::getEntryCount)
+                    .description("Number of results currently stored on disk")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Return the cached result for this request, or compute and store it.
+     * If an identical request is already being computed, wait for its result instead.
+     * Failures are passed to every waiting caller and are never cached.
+     * @param operation Operation name (e.g., "compress")
+     * @param file The uploaded input
+     * @param parameters Normalised parameters, equal for requests that must give the same result
+     * @param computation Produces the result on a miss
+     * @return The result bytes
+     */
+    public byte[] getOrCompute(String operation, MultipartFile file, String parameters,
+                               Computation computation) throws IOException {
+        if (!enabled) {
+            return computation.compute();
+        }
+
+        String key = key(operation, file, parameters);
+
+        byte[] cached = store.get(key);
+        if (cached != null) {
+            recordHit(operation, "hit", cached.length);
+            return cached;
+        }
+
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            byte[] result = await(existing);
+            recordHit(operation, "coalesced", result.length);
+            return result;
+        }
+
+        try {
+            // Another request may have stored the result between the lookup and claiming the key
+            cached = store.get(key);
+            if (cached != null) {
+                recordHit(operation, "hit", cached.length);
+                pending.complete(cached);
+                return cached;
+            }
+
+            misses.incrementAndGet();
+            requests(operation, "miss").increment();
+
+            byte[] result = computation.compute();
+            try {
+                store.put(key, result);
+            } catch (IOException e) {
+                log.warn("Could not store {} result in cache", operation, e);
+            }
+            pending.complete(result);
+            return result;
+        } catch (IOException | RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private void recordHit(String operation, String result, long bytes) {
+        hits.incrementAndGet();
+        requests(operation, result).increment();
+        Counter.builder("masterdocs.result.cache.bytes.saved")
+                .description("Result bytes served without running the operation")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment(bytes);
+    }
+
+    private Counter requests(String operation, String result) {
+        return Counter.builder("masterdocs.result.cache.requests")
+                .description("Cacheable requests by outcome (hit, coalesced or miss)")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wait for an identical in-flight computation, rethrowing its failure as-is
+     */
+    private byte[] await(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for identical request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * SHA-256 over the operation, parameters and SHA-256 of the uploaded content
+     */
+    private String key(String operation, MultipartFile file, String parameters) throws IOException {
+        MessageDigest contentDigest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), contentDigest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        MessageDigest keyDigest = sha256();
+        keyDigest.update(operation.getBytes(StandardCharsets.UTF_8));
+        keyDigest.update((byte) 0);
+        keyDigest.update(parameters.getBytes(StandardCharsets.UTF_8));
+        keyDigest.update((byte) 0);
+        keyDigest.update(contentDigest.digest());
+        return HexFormat.of().formatHex(keyDigest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * An operation whose result can be cached
+     */
+    @FunctionalInterface
+    public interface Computation {
+        byte[] compute() throws IOException;
+    }
+}
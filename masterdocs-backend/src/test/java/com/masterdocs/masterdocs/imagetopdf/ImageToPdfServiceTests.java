@@ -0,0 +1,252 @@
+package com.masterdocs.masterdocs.imagetopdf;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageToPdfServiceTests {
+
+	private final ImageToPdfService service = new ImageToPdfService();
+
+	@Test
+	void writesOnePagePerImage() throws IOException {
+		List<MultipartFile> files = List.of(
+				new MockMultipartFile("files", "photo.jpg", "image/jpeg", encode(800, 600, BufferedImage.TYPE_INT_RGB, "jpg")),
+				new MockMultipartFile("files", "overlay.png", "image/png", encode(300, 200, BufferedImage.TYPE_INT_ARGB, "png")),
+				new MockMultipartFile("files", "scan.png", "image/png", encode(1240, 1754, BufferedImage.TYPE_BYTE_GRAY, "png")));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.writePdf(files, out);
+
+		try (PDDocument document = PDDocument.load(out.toByteArray())) {
+			assertEquals(3, document.getNumberOfPages());
+
+			PDImageXObject jpeg = firstImage(document.getPage(0));
+			assertEquals(COSName.DCT_DECODE, jpeg.getCOSObject().getCOSName(COSName.FILTER));
+			assertEquals(800, jpeg.getImage().getWidth());
+			assertEquals(595.27f, document.getPage(0).getMediaBox().getWidth(), 0.01f);
+
+			PDImageXObject png = firstImage(document.getPage(1));
+			assertNotNull(png.getCOSObject().getDictionaryObject(COSName.SMASK));
+			assertEquals(200, png.getImage().getHeight());
+
+			// Larger than A4, scaled down to fit
+			PDImageXObject scan = firstImage(document.getPage(2));
+			assertEquals(1240, scan.getImage().getWidth());
+			assertTrue(document.getPage(2).getMediaBox().getHeight() <= 842f);
+		}
+	}
+
+	@Test
+	void keepsGraySamplesUnchanged() throws IOException {
+		BufferedImage gray = new BufferedImage(4, 4, BufferedImage.TYPE_BYTE_GRAY);
+		gray.getRaster().setSample(0, 0, 0, 128);
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		assertTrue(ImageIO.write(gray, "png", png));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.writePdf(List.of(new MockMultipartFile("files", "gray.png", "image/png", png.toByteArray())), out);
+
+		try (PDDocument document = PDDocument.load(out.toByteArray())) {
+			PDImageXObject image = firstImage(document.getPage(0));
+			assertEquals(COSName.DEVICEGRAY, image.getCOSObject().getCOSName(COSName.COLORSPACE));
+			// getRGB would have converted linear gray 128 to sRGB 188
+			try (InputStream samples = image.getCOSObject().createInputStream()) {
+				assertEquals(128, samples.read());
+			}
+		}
+	}
+
+	@Test
+	void flushesEachPageBeforeReadingNextImage() throws IOException {
+		byte[] jpeg = encode(1600, 1200, BufferedImage.TYPE_INT_RGB, "jpg");
+		byte[] png = encode(1200, 1200, BufferedImage.TYPE_INT_ARGB, "png");
+		long decodedPng = 1200L * 1200 * 4;
+		CountingOutputStream out = new CountingOutputStream();
+
+		// Record how much PDF had reached the client, and how much heap was in use,
+		// when each upload was first opened
+		List<Long> writtenBeforeOpen = new ArrayList<>();
+		List<Long> heapBeforeOpen = new ArrayList<>();
+		List<MultipartFile> files = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			int index = i;
+			boolean isJpeg = i % 2 == 0;
+			files.add(new MockMultipartFile("files", isJpeg ? "photo_" + i + ".jpg" : "scan_" + i + ".png",
+					isJpeg ? "image/jpeg" : "image/png", isJpeg ? jpeg : png) {
+				@Override
+				public InputStream getInputStream() throws IOException {
+					if (writtenBeforeOpen.size() == index) {
+						writtenBeforeOpen.add(out.count);
+						heapBeforeOpen.add(usedHeap());
+					}
+					return super.getInputStream();
+				}
+			});
+		}
+
+		long heapBefore = usedHeap();
+		service.writePdf(files, out);
+
+		// Every earlier image must already be in the output, so nothing but the
+		// current image is kept in memory while the next one is read
+		for (int i = 0; i < files.size(); i++) {
+			long earlierJpegs = (i + 1) / 2;
+			assertTrue(writtenBeforeOpen.get(i) >= earlierJpegs * jpeg.length,
+					"image " + i + " opened with only " + writtenBeforeOpen.get(i) + " bytes written");
+			if (i > 0) {
+				assertTrue(writtenBeforeOpen.get(i) > writtenBeforeOpen.get(i - 1), "image " + (i - 1) + " not written");
+			}
+		}
+
+		// Decoded PNGs must not pile up either: holding all twenty would need over 100MB
+		long maxGrowth = heapBeforeOpen.stream().mapToLong(used -> used - heapBefore).max().orElse(0);
+		assertTrue(maxGrowth < 3 * decodedPng, "heap grew by " + maxGrowth + " bytes while streaming");
+	}
+
+	@Test
+	void passesCmykJpegsThrough() throws IOException {
+		byte[] cmyk = encodeBands(4);
+		List<MultipartFile> files = List.of(
+				new MockMultipartFile("files", "print.jpg", "image/jpeg", cmyk),
+				new MockMultipartFile("files", "adobe.jpg", "image/jpeg", withAdobeMarker(cmyk)));
+
+		service.validateImages(files);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.writePdf(files, out);
+
+		try (PDDocument document = PDDocument.load(out.toByteArray())) {
+			PDImageXObject plain = firstImage(document.getPage(0));
+			assertEquals(COSName.DCT_DECODE, plain.getCOSObject().getCOSName(COSName.FILTER));
+			assertEquals(COSName.DEVICECMYK, plain.getCOSObject().getCOSName(COSName.COLORSPACE));
+			assertNull(plain.getCOSObject().getDictionaryObject(COSName.DECODE));
+			assertEquals(40, plain.getImage().getWidth());
+
+			// Adobe CMYK JPEGs store inverted samples
+			PDImageXObject adobe = firstImage(document.getPage(1));
+			assertEquals(COSName.DEVICECMYK, adobe.getCOSObject().getCOSName(COSName.COLORSPACE));
+			COSArray decode = (COSArray) adobe.getCOSObject().getDictionaryObject(COSName.DECODE);
+			assertEquals(8, decode.size());
+			assertEquals(1, decode.getInt(0));
+			assertEquals(0, decode.getInt(1));
+		}
+	}
+
+	@Test
+	void rejectsJpegsWithUnknownColourSpace() throws IOException {
+		List<MultipartFile> files = List.of(
+				new MockMultipartFile("files", "photo.jpg", "image/jpeg", encode(80, 60, BufferedImage.TYPE_INT_RGB, "jpg")),
+				new MockMultipartFile("files", "odd.jpg", "image/jpeg", encodeBands(2)));
+
+		assertThrows(IOException.class, () -> service.validateImages(files));
+	}
+
+	@Test
+	void rejectsFilesThatAreNotImages() {
+		List<MultipartFile> files = List.of(
+				new MockMultipartFile("files", "notes.txt", "text/plain", "not an image".getBytes()));
+
+		assertThrows(IOException.class, () -> service.validateImages(files));
+	}
+
+	private static PDImageXObject firstImage(PDPage page) throws IOException {
+		COSName name = page.getResources().getXObjectNames().iterator().next();
+		return (PDImageXObject) page.getResources().getXObject(name);
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Encode a raster of {@code bands} interleaved samples as a JPEG without an Adobe marker
+	 */
+	private static byte[] encodeBands(int bands) throws IOException {
+		WritableRaster raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, 40, 30, bands, null);
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		try (ImageOutputStream ios = ImageIO.createImageOutputStream(jpeg)) {
+			writer.setOutput(ios);
+			writer.write(null, new IIOImage(raster, null, null), null);
+		} finally {
+			writer.dispose();
+		}
+		return jpeg.toByteArray();
+	}
+
+	/**
+	 * Insert an Adobe APP14 marker (transform 0, i.e. plain CMYK) right after the SOI marker
+	 */
+	private static byte[] withAdobeMarker(byte[] jpeg) {
+		byte[] app14 = {(byte) 0xFF, (byte) 0xEE, 0, 14, 'A', 'd', 'o', 'b', 'e', 0, 100, 0, 0, 0, 0, 0};
+		byte[] result = new byte[jpeg.length + app14.length];
+		System.arraycopy(jpeg, 0, result, 0, 2);
+		System.arraycopy(app14, 0, result, 2, app14.length);
+		System.arraycopy(jpeg, 2, result, 2 + app14.length, jpeg.length - 2);
+		return result;
+	}
+
+	private static byte[] encode(int width, int height, int type, String format) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, type);
+		Graphics2D g = image.createGraphics();
+		Random random = new Random(width * 31L + height);
+		for (int i = 0; i < 40; i++) {
+			g.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256), 64 + random.nextInt(192)));
+			g.fillRect(random.nextInt(width), random.nextInt(height), 1 + random.nextInt(width / 2), 1 + random.nextInt(height / 2));
+		}
+		g.dispose();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertTrue(ImageIO.write(image, format, out));
+		return out.toByteArray();
+	}
+
+	/**
+	 * Discards the PDF so the test itself does not hold it in memory
+	 */
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
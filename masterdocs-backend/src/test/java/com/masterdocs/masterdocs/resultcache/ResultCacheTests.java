@@ -0,0 +1,234 @@
+package com.masterdocs.masterdocs.resultcache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTests {
+
+	@TempDir
+	Path directory;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void returnsStoredResultForIdenticalRequest() throws IOException {
+		ResultCache cache = cache(DataSize.ofMegabytes(1));
+		AtomicInteger computations = new AtomicInteger();
+		byte[] result = bytes(100, 1);
+
+		byte[] first = cache.getOrCompute("compress", pdf("brochure"), "quality=0.7", () -> {
+			computations.incrementAndGet();
+			return result;
+		});
+		byte[] second = cache.getOrCompute("compress", pdf("brochure"), "quality=0.7", () -> {
+			computations.incrementAndGet();
+			return result;
+		});
+
+		assertEquals(1, computations.get());
+		assertArrayEquals(result, first);
+		assertArrayEquals(result, second);
+		assertEquals(0.5, cache.getHitRatio(), 0.001);
+		assertEquals(100, meterRegistry.get("masterdocs.result.cache.bytes.saved")
+				.tag("operation", "compress").counter().count(), 0.001);
+	}
+
+	@Test
+	void computesSeparatelyForDifferentContentOrParameters() throws IOException {
+		ResultCache cache = cache(DataSize.ofMegabytes(1));
+		AtomicInteger computations = new AtomicInteger();
+		ResultCache.Computation computation = () -> bytes(10, computations.incrementAndGet());
+
+		cache.getOrCompute("compress", pdf("brochure"), "quality=0.7", computation);
+		cache.getOrCompute("compress", pdf("brochure"), "quality=0.5", computation);
+		cache.getOrCompute("compress", pdf("invoice"), "quality=0.7", computation);
+		cache.getOrCompute("split-every-page", pdf("brochure"), "quality=0.7", computation);
+
+		assertEquals(4, computations.get());
+		assertEquals(0, cache.getHitRatio(), 0.001);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedWhenFull() throws IOException {
+		ResultCache cache = cache(DataSize.ofBytes(250));
+		AtomicInteger computations = new AtomicInteger();
+		ResultCache.Computation computation = () -> bytes(100, computations.incrementAndGet());
+
+		cache.getOrCompute("compress", pdf("a"), "", computation);
+		cache.getOrCompute("compress", pdf("b"), "", computation);
+		// Touch "a" so "b" becomes the least recently used
+		cache.getOrCompute("compress", pdf("a"), "", computation);
+		cache.getOrCompute("compress", pdf("c"), "", computation);
+		assertEquals(3, computations.get());
+
+		cache.getOrCompute("compress", pdf("a"), "", computation);
+		assertEquals(3, computations.get());
+		cache.getOrCompute("compress", pdf("b"), "", computation);
+		assertEquals(4, computations.get());
+	}
+
+	@Test
+	void coalescesConcurrentIdenticalRequests() throws Exception {
+		ResultCache cache = cache(DataSize.ofMegabytes(1));
+		AtomicInteger computations = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		byte[] result = bytes(100, 7);
+
+		List<Thread> threads = new ArrayList<>();
+		List<byte[]> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			threads.add(new Thread(() -> {
+				try {
+					byte[] value = cache.getOrCompute("compress", pdf("brochure"), "quality=0.7", () -> {
+						computations.incrementAndGet();
+						started.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							throw new InterruptedIOException();
+						}
+						return result;
+					});
+					synchronized (results) {
+						results.add(value);
+					}
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+
+		// Hold the computation until every other thread is waiting on it
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (threads.stream().filter(thread -> thread.getState() == Thread.State.WAITING).count() < threads.size()
+				&& System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join(10_000);
+		}
+
+		assertEquals(1, computations.get());
+		assertEquals(8, results.size());
+		results.forEach(value -> assertArrayEquals(result, value));
+		assertEquals(7, meterRegistry.get("masterdocs.result.cache.requests")
+				.tag("result", "coalesced").counter().count(), 0.001);
+	}
+
+	@Test
+	void doesNotCacheFailures() throws IOException {
+		ResultCache cache = cache(DataSize.ofMegabytes(1));
+		AtomicInteger computations = new AtomicInteger();
+
+		assertThrows(IllegalArgumentException.class, () ->
+				cache.getOrCompute("split-by-ranges", pdf("brochure"), "ranges=9-12", () -> {
+					computations.incrementAndGet();
+					throw new IllegalArgumentException("Page range exceeds document page count");
+				}));
+		cache.getOrCompute("split-by-ranges", pdf("brochure"), "ranges=9-12", () -> {
+			computations.incrementAndGet();
+			return bytes(10, 1);
+		});
+
+		assertEquals(2, computations.get());
+	}
+
+	@Test
+	void keepsResultsAcrossRestarts() throws IOException {
+		AtomicInteger computations = new AtomicInteger();
+		ResultCache.Computation computation = () -> bytes(100, computations.incrementAndGet());
+
+		cache(DataSize.ofMegabytes(1)).getOrCompute("compress", pdf("brochure"), "", computation);
+		cache(DataSize.ofMegabytes(1)).getOrCompute("compress", pdf("brochure"), "", computation);
+
+		assertEquals(1, computations.get());
+	}
+
+	@Test
+	void recomputesWhenStoredFileDisappears() throws IOException {
+		ResultCache cache = cache(DataSize.ofMegabytes(1));
+		AtomicInteger computations = new AtomicInteger();
+		ResultCache.Computation computation = () -> bytes(100, computations.incrementAndGet());
+
+		cache.getOrCompute("compress", pdf("brochure"), "", computation);
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : files.toList()) {
+				Files.delete(file);
+			}
+		}
+		byte[] result = cache.getOrCompute("compress", pdf("brochure"), "", computation);
+
+		assertEquals(2, computations.get());
+		assertArrayEquals(bytes(100, 2), result);
+		assertEquals(1, meterRegistry.get("masterdocs.result.cache.entries").gauge().value(), 0.001);
+		assertEquals(100, meterRegistry.get("masterdocs.result.cache.size").gauge().value(), 0.001);
+	}
+
+	@Test
+	void leavesFilesItDoesNotOwn() throws IOException {
+		String key = "0123456789abcdef".repeat(4);
+		Files.writeString(directory.resolve("notes.txt"), "keep me");
+		Files.writeString(directory.resolve("backup.bin"), "keep me");
+		Files.writeString(directory.resolve(key + "8675309.tmp"), "partial write");
+
+		ResultCache cache = cache(DataSize.ofMegabytes(1));
+
+		assertTrue(Files.exists(directory.resolve("notes.txt")));
+		assertTrue(Files.exists(directory.resolve("backup.bin")));
+		assertFalse(Files.exists(directory.resolve(key + "8675309.tmp")));
+		assertEquals(0, meterRegistry.get("masterdocs.result.cache.entries").gauge().value(), 0.001);
+		assertEquals(0, cache.getHitRatio(), 0.001);
+	}
+
+	@Test
+	void doesNotTouchDiskWhenDisabled() throws IOException {
+		Path unused = directory.resolve("disabled");
+		ResultCache cache = new ResultCache(false, unused.toString(), DataSize.ofMegabytes(1), meterRegistry);
+		AtomicInteger computations = new AtomicInteger();
+
+		cache.getOrCompute("compress", pdf("brochure"), "", () -> bytes(10, computations.incrementAndGet()));
+		cache.getOrCompute("compress", pdf("brochure"), "", () -> bytes(10, computations.incrementAndGet()));
+
+		assertEquals(2, computations.get());
+		assertFalse(Files.exists(unused));
+	}
+
+	private ResultCache cache(DataSize maxSize) throws IOException {
+		return new ResultCache(true, directory.toString(), maxSize, meterRegistry);
+	}
+
+	private static MockMultipartFile pdf(String content) {
+		return new MockMultipartFile("file", content + ".pdf", "application/pdf", content.getBytes());
+	}
+
+	private static byte[] bytes(int length, int value) {
+		byte[] bytes = new byte[length];
+		Arrays.fill(bytes, (byte) value);
+		return bytes;
+	}
+}
@@ -0,0 +1,125 @@
+package com.masterdocs.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Stores a run's per-endpoint results as a properties file and compares later runs against it.
+ * Keys look like {@code merge.throughput}, {@code merge.p99Ms}, {@code merge.errorRate};
+ * the whole-run peak RSS is stored as {@code run.peakRssMb}.
+ */
+public class Baseline {
+
+    /**
+     * Absolute slack on error rate, so a baseline with zero errors tolerates a single stray failure
+     */
+    private static final double ERROR_RATE_SLACK = 0.01;
+
+    private final Properties values;
+
+    private Baseline(Properties values) {
+        this.values = values;
+    }
+
+    public static Baseline load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return new Baseline(properties);
+    }
+
+    public static void write(Path file, RunReport run) throws IOException {
+        Properties properties = new Properties();
+        for (EndpointReport report : run.endpoints()) {
+            String prefix = report.operation() + ".";
+            properties.setProperty(prefix + "throughput", format(report.throughput()));
+            properties.setProperty(prefix + "p50Ms", format(report.p50Ms()));
+            properties.setProperty(prefix + "p90Ms", format(report.p90Ms()));
+            properties.setProperty(prefix + "p99Ms", format(report.p99Ms()));
+            properties.setProperty(prefix + "maxMs", format(report.maxMs()));
+            properties.setProperty(prefix + "errorRate", format(report.errorRate()));
+        }
+        if (run.peakRssMb() >= 0) {
+            properties.setProperty("run.peakRssMb", format(run.peakRssMb()));
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "MasterDocs load-test baseline");
+        }
+    }
+
+    /**
+     * Compare a run against this baseline
+     * @param run Results of the current run
+     * @param tolerance Allowed relative change (e.g., 0.15 for 15%)
+     * @return Human-readable regressions, empty if the run is within tolerance
+     */
+    public List<String> findRegressions(RunReport run, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+
+        for (EndpointReport report : run.endpoints()) {
+            String name = report.operation();
+
+            Double throughput = get(name, "throughput");
+            if (throughput != null && report.throughput() < throughput * (1 - tolerance)) {
+                regressions.add(describe(name, "throughput", throughput, report.throughput(), "req/s"));
+            }
+
+            Double p50 = get(name, "p50Ms");
+            if (p50 != null && report.p50Ms() > p50 * (1 + tolerance)) {
+                regressions.add(describe(name, "p50", p50, report.p50Ms(), "ms"));
+            }
+
+            Double p90 = get(name, "p90Ms");
+            if (p90 != null && report.p90Ms() > p90 * (1 + tolerance)) {
+                regressions.add(describe(name, "p90", p90, report.p90Ms(), "ms"));
+            }
+
+            Double p99 = get(name, "p99Ms");
+            if (p99 != null && report.p99Ms() > p99 * (1 + tolerance)) {
+                regressions.add(describe(name, "p99", p99, report.p99Ms(), "ms"));
+            }
+
+            Double errorRate = get(name, "errorRate");
+            if (errorRate != null && report.errorRate() > errorRate + ERROR_RATE_SLACK) {
+                regressions.add(describe(name, "error rate", errorRate, report.errorRate(), ""));
+            }
+
+            // maxMs is stored for reference only: a single slow request (GC pause, cold
+            // connection) moves it, so gating on it would make the check flaky
+        }
+
+        Double peakRss = get("run", "peakRssMb");
+        if (peakRss != null && run.peakRssMb() >= 0 && run.peakRssMb() > peakRss * (1 + tolerance)) {
+            regressions.add(describe("run", "peak RSS", peakRss, run.peakRssMb(), "MB"));
+        }
+        return regressions;
+    }
+
+    private Double get(String operation, String metric) {
+        String value = values.getProperty(operation + "." + metric);
+        return value == null ? null : Double.parseDouble(value);
+    }
+
+    private static String describe(String operation, String metric, double baseline, double current, String unit) {
+        return String.format(Locale.ROOT, "%s %s: baseline %.2f%s, now %.2f%s",
+                operation, metric, baseline, unit, current, unit);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
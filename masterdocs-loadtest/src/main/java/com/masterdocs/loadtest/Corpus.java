@@ -0,0 +1,18 @@
+package com.masterdocs.loadtest;
+
+import java.util.List;
+
+/**
+ * Files generated by {@link CorpusGenerator}, held in memory so that disk reads
+ * on the load generator do not show up in the measured latencies
+ * @param pdfs PDF documents with their page counts
+ * @param images JPG and PNG images
+ */
+public record Corpus(List<PdfFile> pdfs, List<ImageFile> images) {
+
+    public record PdfFile(String name, int pages, byte[] content) {
+    }
+
+    public record ImageFile(String name, String contentType, byte[] content) {
+    }
+}
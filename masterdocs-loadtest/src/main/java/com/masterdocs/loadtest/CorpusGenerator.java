@@ -0,0 +1,170 @@
+package com.masterdocs.loadtest;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the PDF and image corpus replayed against the backend.
+ * The same seed always produces byte-identical files, so runs on different
+ * machines (or before and after a change) upload exactly the same payloads.
+ */
+public class CorpusGenerator {
+
+    private static final String[] WORDS = {
+            "invoice", "quarterly", "report", "summary", "contract", "appendix", "revenue",
+            "schedule", "delivery", "policy", "section", "clause", "payment", "account",
+            "statement", "balance", "project", "milestone", "review", "approval"
+    };
+
+    private final long seed;
+
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generate the corpus into the given directory, replacing any previous files
+     * @param dir Target directory (created if missing)
+     * @return The generated corpus
+     */
+    public Corpus generate(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Random random = new Random(seed);
+
+        List<Corpus.PdfFile> pdfs = new ArrayList<>();
+        pdfs.add(writeTextPdf(dir.resolve("text_4p.pdf"), 4, random));
+        pdfs.add(writeTextPdf(dir.resolve("text_24p.pdf"), 24, random));
+        pdfs.add(writeScannedPdf(dir.resolve("scanned_8p.pdf"), 8, random));
+
+        List<Corpus.ImageFile> images = new ArrayList<>();
+        images.add(writeImage(dir.resolve("photo_1600x1200.jpg"), 1600, 1200, "jpg", random));
+        images.add(writeImage(dir.resolve("photo_800x600.jpg"), 800, 600, "jpg", random));
+        images.add(writeImage(dir.resolve("scan_1240x1754.png"), 1240, 1754, "png", random));
+        images.add(writeImage(dir.resolve("icon_320x240.png"), 320, 240, "png", random));
+
+        return new Corpus(pdfs, images);
+    }
+
+    /**
+     * Text-only pages, the cheap end of the range (merge/split workloads)
+     */
+    private Corpus.PdfFile writeTextPdf(Path path, int pages, Random random) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            document.setDocumentId(seed);
+
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    contentStream.beginText();
+                    contentStream.setFont(PDType1Font.HELVETICA_BOLD, 16);
+                    contentStream.newLineAtOffset(50, 790);
+                    contentStream.showText("Page " + (i + 1) + " of " + pages);
+                    contentStream.setFont(PDType1Font.HELVETICA, 10);
+                    contentStream.setLeading(14);
+                    for (int line = 0; line < 48; line++) {
+                        contentStream.newLine();
+                        contentStream.showText(randomSentence(random));
+                    }
+                    contentStream.endText();
+                }
+            }
+
+            document.save(path.toFile());
+        }
+        return new Corpus.PdfFile(path.getFileName().toString(), pages, Files.readAllBytes(path));
+    }
+
+    /**
+     * Full-page raster images, similar to scanned documents (compress/pdf-to-image workloads)
+     */
+    private Corpus.PdfFile writeScannedPdf(Path path, int pages, Random random) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            document.setDocumentId(seed);
+
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+
+                BufferedImage scan = renderImage(1240, 1754, random);
+                PDImageXObject pdImage = JPEGFactory.createFromImage(document, scan, 0.9f);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    contentStream.drawImage(pdImage, 0, 0,
+                            PDRectangle.A4.getWidth(), PDRectangle.A4.getHeight());
+                }
+            }
+
+            document.save(path.toFile());
+        }
+        return new Corpus.PdfFile(path.getFileName().toString(), pages, Files.readAllBytes(path));
+    }
+
+    private Corpus.ImageFile writeImage(Path path, int width, int height, String format, Random random) throws IOException {
+        BufferedImage image = renderImage(width, height, random);
+        if (!ImageIO.write(image, format, path.toFile())) {
+            throw new IllegalStateException("No ImageIO writer for " + format);
+        }
+        String contentType = format.equals("png") ? "image/png" : "image/jpeg";
+        return new Corpus.ImageFile(path.getFileName().toString(), contentType, Files.readAllBytes(path));
+    }
+
+    /**
+     * Draw a gradient background with noise and shapes so the image does not compress trivially
+     */
+    private BufferedImage renderImage(int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setPaint(new GradientPaint(0, 0, randomColor(random), width, height, randomColor(random)));
+            g.fillRect(0, 0, width, height);
+
+            for (int i = 0; i < 60; i++) {
+                g.setColor(randomColor(random));
+                int w = 20 + random.nextInt(width / 4);
+                int h = 20 + random.nextInt(height / 4);
+                g.fillOval(random.nextInt(width), random.nextInt(height), w, h);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        for (int i = 0; i < width * height / 8; i++) {
+            image.setRGB(random.nextInt(width), random.nextInt(height), random.nextInt(0xFFFFFF));
+        }
+        return image;
+    }
+
+    private Color randomColor(Random random) {
+        return new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+    }
+
+    private String randomSentence(Random random) {
+        StringBuilder sentence = new StringBuilder();
+        int words = 8 + random.nextInt(6);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sentence.append(' ');
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
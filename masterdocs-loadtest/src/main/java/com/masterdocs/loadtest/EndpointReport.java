@@ -0,0 +1,15 @@
+package com.masterdocs.loadtest;
+
+/**
+ * Summary of one operation after a run. Latencies are in milliseconds.
+ */
+public record EndpointReport(
+        String operation,
+        long requests,
+        double throughput,
+        double p50Ms,
+        double p90Ms,
+        double p99Ms,
+        double maxMs,
+        double errorRate) {
+}
@@ -0,0 +1,62 @@
+package com.masterdocs.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measurements collected for one operation during the measured phase
+ */
+public class EndpointStats {
+
+    private final Operation operation;
+    private final List<Long> latenciesNanos = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong errors = new AtomicLong();
+
+    public EndpointStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    public void requestFinished(long latencyNanos, boolean success) {
+        latenciesNanos.add(latencyNanos);
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Summarise the collected samples
+     * @param elapsedSeconds Length of the measured phase
+     */
+    public EndpointReport toReport(double elapsedSeconds) {
+        long[] sorted;
+        synchronized (latenciesNanos) {
+            sorted = latenciesNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        int requests = sorted.length;
+        double errorRate = requests == 0 ? 0 : (double) errors.get() / requests;
+
+        return new EndpointReport(
+                operation.getName(),
+                requests,
+                requests / elapsedSeconds,
+                percentileMillis(sorted, 50),
+                percentileMillis(sorted, 90),
+                percentileMillis(sorted, 99),
+                requests == 0 ? 0 : sorted[requests - 1] / 1_000_000.0,
+                errorRate);
+    }
+
+    /**
+     * Nearest-rank percentile
+     */
+    private double percentileMillis(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
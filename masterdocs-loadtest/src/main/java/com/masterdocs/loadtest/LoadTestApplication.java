@@ -0,0 +1,228 @@
+package com.masterdocs.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays a weighted mix of requests against a running MasterDocs backend and reports
+ * throughput, latency percentiles and error rate per endpoint, plus the backend's peak RSS.
+ *
+ * Example:
+ * <pre>
+ * mvn -q compile exec:java -Dexec.args="--base-url=http://localhost:8080 --duration=120 --concurrency=16 --pid=12345 --baseline=baseline.properties"
+ * </pre>
+ * Exits with status 1 when the run regresses against the baseline or every request failed.
+ */
+public class LoadTestApplication {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final Corpus corpus;
+    private final List<Operation> weightedOperations = new ArrayList<>();
+
+    public LoadTestApplication(LoadTestConfig config, Corpus corpus) {
+        this.config = config;
+        this.corpus = corpus;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(config.getConcurrency(), daemonThreads("http-client")))
+                .build();
+
+        config.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weightedOperations.add(operation);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        Path corpusDir = config.getCorpusDir() != null
+                ? config.getCorpusDir()
+                : Files.createTempDirectory("masterdocs-corpus");
+        Corpus corpus = new CorpusGenerator(config.getSeed()).generate(corpusDir);
+        System.out.println("Corpus written to " + corpusDir);
+
+        RunReport run = new LoadTestApplication(config, corpus).run();
+        printReport(run);
+
+        int exitCode = 0;
+        if (run.endpoints().stream().allMatch(report -> report.requests() == 0 || report.errorRate() == 1.0)) {
+            System.out.println("Every request failed, is the backend running at " + config.getBaseUrl() + "?");
+            exitCode = 1;
+        }
+
+        if (config.getBaseline() != null) {
+            if (config.isWriteBaseline()) {
+                Baseline.write(config.getBaseline(), run);
+                System.out.println("Baseline written to " + config.getBaseline());
+            } else {
+                List<String> regressions = Baseline.load(config.getBaseline())
+                        .findRegressions(run, config.getTolerance());
+                if (regressions.isEmpty()) {
+                    System.out.println("No regressions against " + config.getBaseline());
+                } else {
+                    System.out.println("Regressions against " + config.getBaseline() + ":");
+                    regressions.forEach(regression -> System.out.println("  " + regression));
+                    exitCode = 1;
+                }
+            }
+        }
+
+        System.exit(exitCode);
+    }
+
+    /**
+     * Run the warm-up phase (not recorded) followed by the measured phase
+     * @return One report per operation in the mix and the peak RSS of the run
+     */
+    public RunReport run() throws InterruptedException {
+        if (!config.getWarmup().isZero()) {
+            System.out.println("Warming up for " + config.getWarmup().toSeconds() + "s...");
+            drive(config.getWarmup(), null);
+        }
+
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        config.getMix().forEach((operation, weight) -> {
+            if (weight > 0) {
+                stats.put(operation, new EndpointStats(operation));
+            }
+        });
+
+        RssSampler rssSampler = null;
+        Thread sampler = null;
+        if (config.getBackendPid() != null) {
+            rssSampler = new RssSampler(config.getBackendPid());
+            if (rssSampler.isAvailable()) {
+                sampler = new Thread(rssSampler, "rss-sampler");
+                sampler.setDaemon(true);
+                sampler.start();
+            } else {
+                System.out.println("Cannot read RSS of pid " + config.getBackendPid() + ", peak RSS will not be reported");
+            }
+        }
+
+        System.out.println("Measuring for " + config.getDuration().toSeconds() + "s with "
+                + config.getConcurrency() + " concurrent clients...");
+        long start = System.nanoTime();
+        drive(config.getDuration(), stats);
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        if (sampler != null) {
+            sampler.interrupt();
+        }
+
+        List<EndpointReport> reports = new ArrayList<>();
+        for (EndpointStats endpoint : stats.values()) {
+            reports.add(endpoint.toReport(elapsedSeconds));
+        }
+        return new RunReport(reports, sampler == null ? -1 : rssSampler.getPeakRssMb());
+    }
+
+    /**
+     * Keep {@code concurrency} clients busy in a closed loop until the duration elapses
+     * @param stats Where to record results, or null to discard them (warm-up)
+     */
+    private void drive(Duration duration, Map<Operation, EndpointStats> stats) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(config.getConcurrency(), daemonThreads("client"));
+
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            // Per-client seed keeps the request sequence of every client reproducible
+            Random random = new Random(config.getSeed() * 31 + i);
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    Operation operation = weightedOperations.get(random.nextInt(weightedOperations.size()));
+                    sendOne(operation, random, stats == null ? null : stats.get(operation));
+                }
+            });
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(duration.plus(REQUEST_TIMEOUT).toMillis(), TimeUnit.MILLISECONDS)) {
+            // Stragglers would otherwise overlap with (and skew) the next phase
+            workers.shutdownNow();
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Clients still running " + SHUTDOWN_TIMEOUT.toSeconds()
+                        + "s after the phase ended");
+            }
+        }
+    }
+
+    /**
+     * Daemon threads, so the JVM can exit when main fails before System.exit
+     */
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void sendOne(Operation operation, Random random, EndpointStats stats) {
+        MultipartBody body = new MultipartBody("masterdocs-" + Long.toHexString(random.nextLong()));
+        operation.fill(body, corpus, random);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.getBaseUrl() + operation.getPath()))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", body.getContentType())
+                .POST(body.toBodyPublisher())
+                .build();
+
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
+        }
+
+        if (stats != null) {
+            stats.requestFinished(System.nanoTime() - start, success);
+        }
+    }
+
+    private static void printReport(RunReport run) {
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-14s %9s %9s %9s %9s %9s %9s %8s",
+                "operation", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors"));
+        for (EndpointReport report : run.endpoints()) {
+            System.out.println(String.format(Locale.ROOT, "%-14s %9d %9.2f %9.1f %9.1f %9.1f %9.1f %7.2f%%",
+                    report.operation(), report.requests(), report.throughput(),
+                    report.p50Ms(), report.p90Ms(), report.p99Ms(), report.maxMs(),
+                    report.errorRate() * 100));
+        }
+        System.out.println();
+        System.out.println("Peak backend RSS: "
+                + (run.peakRssMb() < 0 ? "n/a" : String.format(Locale.ROOT, "%.0f MB", run.peakRssMb())));
+        System.out.println();
+    }
+}
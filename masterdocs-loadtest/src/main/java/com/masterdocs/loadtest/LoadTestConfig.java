@@ -0,0 +1,130 @@
+package com.masterdocs.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Command line options for a load-test run.
+ * Every option is passed as {@code --name=value}; anything not given keeps its default.
+ */
+public class LoadTestConfig {
+
+    private URI baseUrl = URI.create("http://localhost:8080");
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private int concurrency = 8;
+    private long seed = 42L;
+    private Path corpusDir;
+    private Long backendPid;
+    private Path baseline;
+    private boolean writeBaseline;
+    private double tolerance = 0.15;
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    public LoadTestConfig() {
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, operation.getDefaultWeight());
+        }
+    }
+
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String[] parts = arg.substring(2).split("=", 2);
+            String name = parts[0];
+            String value = parts.length > 1 ? parts[1] : "true";
+
+            switch (name) {
+                case "base-url" -> config.baseUrl = URI.create(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+                case "duration" -> config.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "warmup" -> config.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "concurrency" -> config.concurrency = Integer.parseInt(value);
+                case "seed" -> config.seed = Long.parseLong(value);
+                case "corpus-dir" -> config.corpusDir = Path.of(value);
+                case "pid" -> config.backendPid = Long.parseLong(value);
+                case "baseline" -> config.baseline = Path.of(value);
+                case "write-baseline" -> config.writeBaseline = Boolean.parseBoolean(value);
+                case "tolerance" -> config.tolerance = Double.parseDouble(value);
+                case "mix" -> config.parseMix(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+
+        if (config.concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        if (config.writeBaseline && config.baseline == null) {
+            throw new IllegalArgumentException("--write-baseline requires --baseline=<file>");
+        }
+        return config;
+    }
+
+    /**
+     * Parse a weighted mix (e.g., "merge:3,split:3,compress:2,pdf-to-image:1,image-to-pdf:2").
+     * Operations left out of the list get weight 0 and are not exercised.
+     */
+    private void parseMix(String value) {
+        mix.replaceAll((operation, weight) -> 0);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + entry);
+            }
+            mix.put(Operation.fromName(parts[0].trim()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix must contain at least one operation with a positive weight");
+        }
+    }
+
+    public URI getBaseUrl() {
+        return baseUrl;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Path getCorpusDir() {
+        return corpusDir;
+    }
+
+    public Long getBackendPid() {
+        return backendPid;
+    }
+
+    public Path getBaseline() {
+        return baseline;
+    }
+
+    public boolean isWriteBaseline() {
+        return writeBaseline;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+}
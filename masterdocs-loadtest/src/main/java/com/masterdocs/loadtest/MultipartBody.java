@@ -0,0 +1,49 @@
+package com.masterdocs.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal multipart/form-data encoder for {@link java.net.http.HttpClient},
+ * which has no built-in support for it.
+ */
+public class MultipartBody {
+
+    private final String boundary;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    public MultipartBody(String boundary) {
+        this.boundary = boundary;
+    }
+
+    public MultipartBody addField(String name, String value) {
+        writeHeader("Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n");
+        body.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        return this;
+    }
+
+    public MultipartBody addFile(String name, String fileName, String contentType, byte[] content) {
+        writeHeader("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n");
+        body.writeBytes(content);
+        body.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        return this;
+    }
+
+    public String getContentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    public HttpRequest.BodyPublisher toBodyPublisher() {
+        ByteArrayOutputStream complete = new ByteArrayOutputStream(body.size() + boundary.length() + 8);
+        complete.writeBytes(body.toByteArray());
+        complete.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return HttpRequest.BodyPublishers.ofByteArray(complete.toByteArray());
+    }
+
+    private void writeHeader(String header) {
+        body.writeBytes(("--" + boundary + "\r\n" + header).getBytes(StandardCharsets.UTF_8));
+    }
+}
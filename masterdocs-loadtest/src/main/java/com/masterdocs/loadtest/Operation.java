@@ -0,0 +1,132 @@
+package com.masterdocs.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Backend operations replayed by the load test, with the default weight of each in the mix.
+ * The weights roughly follow production traffic: merge and split dominate, pdf-to-image is rare.
+ * Multi-file requests use distinct files, as users do, which also keeps every request body
+ * under the backend's {@code spring.servlet.multipart.max-request-size}.
+ */
+public enum Operation {
+
+    MERGE("merge", "/api/pdfmerge/merge", 3) {
+        @Override
+        void fill(MultipartBody body, Corpus corpus, Random random) {
+            for (Corpus.PdfFile pdf : pickDistinct(corpus.pdfs(), 2 + random.nextInt(2), random)) {
+                body.addFile("files", pdf.name(), "application/pdf", pdf.content());
+            }
+        }
+    },
+
+    SPLIT("split", "/api/pdfsplit/split-by-ranges", 3) {
+        @Override
+        void fill(MultipartBody body, Corpus corpus, Random random) {
+            Corpus.PdfFile pdf = pick(corpus.pdfs(), random);
+            body.addFile("file", pdf.name(), "application/pdf", pdf.content());
+            body.addField("ranges", randomRanges(pdf.pages(), random));
+        }
+    },
+
+    COMPRESS("compress", "/api/pdfcompress/compress", 2) {
+        @Override
+        void fill(MultipartBody body, Corpus corpus, Random random) {
+            Corpus.PdfFile pdf = pick(corpus.pdfs(), random);
+            body.addFile("file", pdf.name(), "application/pdf", pdf.content());
+            body.addField("quality", QUALITIES[random.nextInt(QUALITIES.length)]);
+        }
+    },
+
+    PDF_TO_IMAGE("pdf-to-image", "/api/pdftoimage/convert", 1) {
+        @Override
+        void fill(MultipartBody body, Corpus corpus, Random random) {
+            Corpus.PdfFile pdf = pick(corpus.pdfs(), random);
+            body.addFile("file", pdf.name(), "application/pdf", pdf.content());
+            body.addField("format", random.nextBoolean() ? "png" : "jpg");
+            body.addField("dpi", DPIS[random.nextInt(DPIS.length)]);
+        }
+    },
+
+    IMAGE_TO_PDF("image-to-pdf", "/api/imagetopdf/convert", 2) {
+        @Override
+        void fill(MultipartBody body, Corpus corpus, Random random) {
+            for (Corpus.ImageFile image : pickDistinct(corpus.images(), 1 + random.nextInt(3), random)) {
+                body.addFile("files", image.name(), image.contentType(), image.content());
+            }
+        }
+    };
+
+    private static final String[] QUALITIES = {"0.3", "0.5", "0.7", "0.9"};
+    private static final String[] DPIS = {"72", "150"};
+
+    /**
+     * The backend's spring.servlet.multipart.max-request-size
+     */
+    static final long MAX_REQUEST_BYTES = 20L * 1024 * 1024;
+
+    private final String name;
+    private final String path;
+    private final int defaultWeight;
+
+    Operation(String name, String path, int defaultWeight) {
+        this.name = name;
+        this.path = path;
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * Add the form fields and files for one request of this operation
+     */
+    abstract void fill(MultipartBody body, Corpus corpus, Random random);
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    public static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equalsIgnoreCase(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+
+    private static <T> T pick(List<T> items, Random random) {
+        return items.get(random.nextInt(items.size()));
+    }
+
+    /**
+     * Up to {@code count} different items in random order
+     */
+    private static <T> List<T> pickDistinct(List<T> items, int count, Random random) {
+        List<T> shuffled = new ArrayList<>(items);
+        Collections.shuffle(shuffled, random);
+        return shuffled.subList(0, Math.min(count, shuffled.size()));
+    }
+
+    /**
+     * Build a valid range list for the document (e.g., "1-3,5,7-9")
+     */
+    static String randomRanges(int totalPages, Random random) {
+        List<String> ranges = new ArrayList<>();
+        int start = 1;
+        while (start <= totalPages && ranges.size() < 4) {
+            int end = Math.min(totalPages, start + random.nextInt(4));
+            ranges.add(start == end ? String.valueOf(start) : start + "-" + end);
+            start = end + 1 + random.nextInt(2);
+        }
+        return String.join(",", ranges);
+    }
+}
@@ -0,0 +1,70 @@
+package com.masterdocs.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples the resident set size of the backend process from {@code /proc/<pid>/status}
+ * and keeps the highest value seen. Only works when the backend runs on the same
+ * Linux host as the load test.
+ */
+public class RssSampler implements Runnable {
+
+    private static final long INTERVAL_MILLIS = 100;
+
+    private final Path statusFile;
+    private final AtomicLong peakRssKb = new AtomicLong(-1);
+
+    public RssSampler(long pid) {
+        this.statusFile = Path.of("/proc", String.valueOf(pid), "status");
+    }
+
+    /**
+     * Check that the status file can be read before starting the sampler
+     */
+    public boolean isAvailable() {
+        return readRssKb() >= 0;
+    }
+
+    /**
+     * @return Highest RSS sampled so far in MB, or -1 if there was no sample
+     */
+    public double getPeakRssMb() {
+        long peak = peakRssKb.get();
+        return peak < 0 ? -1 : peak / 1024.0;
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long rssKb = readRssKb();
+            if (rssKb >= 0) {
+                peakRssKb.accumulateAndGet(rssKb, Math::max);
+            }
+
+            try {
+                Thread.sleep(INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Read VmRSS in kB, or -1 if the process is gone or /proc is not available
+     */
+    private long readRssKb() {
+        try {
+            for (String line : Files.readAllLines(statusFile)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Treated as "no sample"
+        }
+        return -1;
+    }
+}
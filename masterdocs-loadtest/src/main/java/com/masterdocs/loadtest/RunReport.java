@@ -0,0 +1,13 @@
+package com.masterdocs.loadtest;
+
+import java.util.List;
+
+/**
+ * Results of a measured phase.
+ * Peak RSS belongs to the whole run: the backend is one process and the mix runs
+ * every operation at once, so memory cannot be attributed to a single endpoint.
+ * @param endpoints One report per operation in the mix
+ * @param peakRssMb Highest backend RSS seen during the run, or -1 when it was not sampled
+ */
+public record RunReport(List<EndpointReport> endpoints, double peakRssMb) {
+}
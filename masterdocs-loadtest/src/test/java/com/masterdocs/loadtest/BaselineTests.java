@@ -0,0 +1,75 @@
+package com.masterdocs.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaselineTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void passesWhenWithinTolerance() throws IOException {
+		Baseline baseline = baseline(run(report("merge", 10, 100, 200, 400, 0), 500));
+
+		List<String> regressions = baseline.findRegressions(
+				run(report("merge", 9, 110, 220, 440, 0), 550), 0.15);
+
+		assertTrue(regressions.isEmpty(), regressions.toString());
+	}
+
+	@Test
+	void flagsEachRegressedMetric() throws IOException {
+		Baseline baseline = baseline(run(report("merge", 10, 100, 200, 400, 0), 500));
+
+		List<String> regressions = baseline.findRegressions(
+				run(report("merge", 8, 120, 240, 480, 0.05), 600), 0.15);
+
+		assertEquals(6, regressions.size(), regressions.toString());
+		assertTrue(regressions.stream().anyMatch(r -> r.startsWith("merge throughput")));
+		assertTrue(regressions.stream().anyMatch(r -> r.startsWith("merge p50")));
+		assertTrue(regressions.stream().anyMatch(r -> r.startsWith("merge p90")));
+		assertTrue(regressions.stream().anyMatch(r -> r.startsWith("merge p99")));
+		assertTrue(regressions.stream().anyMatch(r -> r.startsWith("merge error rate")));
+		assertTrue(regressions.stream().anyMatch(r -> r.startsWith("run peak RSS")));
+	}
+
+	@Test
+	void toleratesSingleStrayErrorAgainstCleanBaseline() throws IOException {
+		Baseline baseline = baseline(run(report("split", 10, 100, 200, 400, 0), -1));
+
+		assertTrue(baseline.findRegressions(run(report("split", 10, 100, 200, 400, 0.005), -1), 0.15).isEmpty());
+	}
+
+	@Test
+	void ignoresOperationsAndRssMissingFromBaseline() throws IOException {
+		Baseline baseline = baseline(run(report("merge", 10, 100, 200, 400, 0), -1));
+
+		List<String> regressions = baseline.findRegressions(
+				run(report("compress", 1, 5000, 9000, 9000, 0.5), 4096), 0.15);
+
+		assertTrue(regressions.isEmpty(), regressions.toString());
+	}
+
+	private Baseline baseline(RunReport run) throws IOException {
+		Path file = directory.resolve("baseline.properties");
+		Baseline.write(file, run);
+		return Baseline.load(file);
+	}
+
+	private static RunReport run(EndpointReport report, double peakRssMb) {
+		return new RunReport(List.of(report), peakRssMb);
+	}
+
+	private static EndpointReport report(String operation, double throughput, double p50, double p90,
+										 double p99, double errorRate) {
+		return new EndpointReport(operation, 1000, throughput, p50, p90, p99, p99 * 2, errorRate);
+	}
+}
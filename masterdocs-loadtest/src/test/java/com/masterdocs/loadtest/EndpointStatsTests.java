@@ -0,0 +1,49 @@
+package com.masterdocs.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EndpointStatsTests {
+
+	@Test
+	void reportsNearestRankPercentiles() {
+		EndpointStats stats = new EndpointStats(Operation.MERGE);
+		// 1..100 ms, recorded out of order
+		for (int i = 100; i >= 1; i--) {
+			stats.requestFinished(i * 1_000_000L, i % 10 != 0);
+		}
+
+		EndpointReport report = stats.toReport(10);
+
+		assertEquals("merge", report.operation());
+		assertEquals(100, report.requests());
+		assertEquals(10.0, report.throughput(), 0.001);
+		assertEquals(50.0, report.p50Ms(), 0.001);
+		assertEquals(90.0, report.p90Ms(), 0.001);
+		assertEquals(99.0, report.p99Ms(), 0.001);
+		assertEquals(100.0, report.maxMs(), 0.001);
+		assertEquals(0.1, report.errorRate(), 0.001);
+	}
+
+	@Test
+	void usesOnlySampleForEveryPercentile() {
+		EndpointStats stats = new EndpointStats(Operation.SPLIT);
+		stats.requestFinished(7_000_000L, true);
+
+		EndpointReport report = stats.toReport(1);
+
+		assertEquals(7.0, report.p50Ms(), 0.001);
+		assertEquals(7.0, report.p99Ms(), 0.001);
+		assertEquals(7.0, report.maxMs(), 0.001);
+	}
+
+	@Test
+	void reportsZerosWithoutRequests() {
+		EndpointReport report = new EndpointStats(Operation.COMPRESS).toReport(1);
+
+		assertEquals(0, report.requests());
+		assertEquals(0.0, report.p99Ms(), 0.001);
+		assertEquals(0.0, report.errorRate(), 0.001);
+	}
+}
@@ -0,0 +1,41 @@
+package com.masterdocs.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoadTestConfigTests {
+
+	@Test
+	void defaultsToEveryOperation() {
+		LoadTestConfig config = LoadTestConfig.parse(new String[0]);
+
+		for (Operation operation : Operation.values()) {
+			assertEquals(operation.getDefaultWeight(), config.getMix().get(operation));
+		}
+	}
+
+	@Test
+	void parsesMixAndDropsUnlistedOperations() {
+		LoadTestConfig config = LoadTestConfig.parse(new String[]{"--mix=merge:5, compress , pdf-to-image:0"});
+
+		assertEquals(5, config.getMix().get(Operation.MERGE));
+		assertEquals(1, config.getMix().get(Operation.COMPRESS));
+		assertEquals(0, config.getMix().get(Operation.PDF_TO_IMAGE));
+		assertEquals(0, config.getMix().get(Operation.SPLIT));
+		assertEquals(0, config.getMix().get(Operation.IMAGE_TO_PDF));
+	}
+
+	@Test
+	void rejectsInvalidMix() {
+		assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--mix=merge:0"}));
+		assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--mix=merge:-1"}));
+		assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--mix=rotate:2"}));
+	}
+
+	@Test
+	void requiresBaselineFileToWriteBaseline() {
+		assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"--write-baseline"}));
+	}
+}
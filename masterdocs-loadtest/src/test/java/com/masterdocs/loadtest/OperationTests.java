@@ -0,0 +1,61 @@
+package com.masterdocs.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperationTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void requestsStayUnderBackendUploadLimit() throws IOException {
+		Corpus corpus = new CorpusGenerator(42).generate(directory);
+		Random random = new Random(42);
+
+		for (Operation operation : Operation.values()) {
+			long largest = 0;
+			for (int i = 0; i < 200; i++) {
+				MultipartBody body = new MultipartBody("boundary-" + i);
+				operation.fill(body, corpus, random);
+				largest = Math.max(largest, body.toBodyPublisher().contentLength());
+			}
+			assertTrue(largest < Operation.MAX_REQUEST_BYTES,
+					operation.getName() + " sent " + largest + " bytes");
+		}
+	}
+
+	@Test
+	void randomRangesStayWithinDocumentAndAscend() {
+		Random random = new Random(42);
+		for (int totalPages = 1; totalPages <= 30; totalPages++) {
+			for (int attempt = 0; attempt < 50; attempt++) {
+				String ranges = Operation.randomRanges(totalPages, random);
+				String[] parts = ranges.split(",");
+				assertTrue(parts.length >= 1 && parts.length <= 4, ranges);
+
+				int previousEnd = 0;
+				for (String part : parts) {
+					String[] bounds = part.split("-");
+					int start = Integer.parseInt(bounds[0]);
+					int end = bounds.length > 1 ? Integer.parseInt(bounds[1]) : start;
+					assertTrue(start > previousEnd && start <= end && end <= totalPages,
+							ranges + " for " + totalPages + " pages");
+					previousEnd = end;
+				}
+			}
+		}
+	}
+
+	@Test
+	void sameSeedGivesSameRanges() {
+		assertEquals(Operation.randomRanges(24, new Random(7)), Operation.randomRanges(24, new Random(7)));
+	}
+}